@@ -42,6 +42,22 @@ public class Arrangement {
         return genes[j * instances.size() + i] == '1';
     }
 
+    /**
+     * Busca o recurso físico em que uma instância virtual está alocada.
+     *
+     * @param instanceIndex Índice da instância virtual.
+     * @return Índice do recurso físico, ou -1 se a instância não estiver alocada.
+     */
+    public int getResourceIndex(int instanceIndex) {
+        for (int j = 0; j < resources.size(); j++) {
+            if (getBit(j, instanceIndex)) {
+                return j;
+            }
+        }
+
+        return -1;
+    }
+
     /**
      * Calcula a eficiência do arranjo.
      *
@@ -0,0 +1,376 @@
+package org.ifsul;
+
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+/**
+ * Regras de posicionamento compiladas para uma lista concreta de recursos e instâncias.
+ * <p>
+ * Instâncias ligadas por afinidade formam uma unidade, que é sempre alocada inteira em um único recurso.
+ * Cada unidade possui um bitset com os recursos permitidos e a lista dos grupos de antiafinidade
+ * (grupos de conflito) a que pertence. A ocupação de um arranjo é mantida como um bitset de grupos
+ * por recurso, de modo que verificar se uma unidade pode ser alocada em um recurso é O(1)
+ * em relação ao número de instâncias.
+ */
+public class ConstraintIndex {
+    @Getter
+    private final List<PhysicalResource> resources;
+    @Getter
+    private final List<VirtualInstance> instances;
+
+    /**
+     * Unidade de cada instância
+     */
+    private final int[] unitOf;
+
+    /**
+     * Instâncias de cada unidade
+     */
+    private final int[][] unitMembers;
+
+    /**
+     * Recursos permitidos para cada unidade
+     */
+    private final BitSet[] allowedHosts;
+
+    /**
+     * Grupos de conflito de cada unidade
+     */
+    private final int[][] conflictGroups;
+
+    /**
+     * Unidades ordenadas da mais restrita para a menos restrita
+     */
+    private final int[] placementOrder;
+
+    ConstraintIndex(List<PhysicalResource> resources, List<VirtualInstance> instances,
+                    List<List<String>> affinityGroups, List<List<String>> antiAffinityGroups,
+                    Map<String, List<Predicate<PhysicalResource>>> hostRestrictions) {
+        this.resources = resources;
+        this.instances = instances;
+
+        int numResources = resources.size();
+        int numInstances = instances.size();
+
+        Map<String, Integer> instanceIndex = new HashMap<>();
+        for (int i = 0; i < numInstances; i++) {
+            instanceIndex.put(instances.get(i).getId(), i);
+        }
+
+        // Une as instâncias com afinidade em unidades
+        int[] parent = IntStream.range(0, numInstances).toArray();
+        for (List<String> group : affinityGroups) {
+            int first = indexOf(instanceIndex, group.get(0));
+            for (String id : group) {
+                parent[find(parent, indexOf(instanceIndex, id))] = find(parent, first);
+            }
+        }
+
+        unitOf = new int[numInstances];
+        Map<Integer, Integer> unitOfRoot = new HashMap<>();
+        List<List<Integer>> members = new ArrayList<>();
+        for (int i = 0; i < numInstances; i++) {
+            int unit = unitOfRoot.computeIfAbsent(find(parent, i), root -> {
+                members.add(new ArrayList<>());
+                return members.size() - 1;
+            });
+            unitOf[i] = unit;
+            members.get(unit).add(i);
+        }
+
+        int numUnits = members.size();
+        unitMembers = new int[numUnits][];
+        allowedHosts = new BitSet[numUnits];
+
+        for (int u = 0; u < numUnits; u++) {
+            unitMembers[u] = members.get(u).stream().mapToInt(Integer::intValue).toArray();
+            allowedHosts[u] = new BitSet(numResources);
+            allowedHosts[u].set(0, numResources);
+        }
+
+        // A unidade só pode ir para os recursos permitidos a todas as suas instâncias
+        for (Map.Entry<String, List<Predicate<PhysicalResource>>> entry : hostRestrictions.entrySet()) {
+            BitSet allowed = allowedHosts[unitOf[indexOf(instanceIndex, entry.getKey())]];
+            for (Predicate<PhysicalResource> predicate : entry.getValue()) {
+                for (int j = 0; j < numResources; j++) {
+                    if (!predicate.test(resources.get(j))) {
+                        allowed.clear(j);
+                    }
+                }
+            }
+        }
+
+        for (int u = 0; u < numUnits; u++) {
+            if (allowedHosts[u].isEmpty()) {
+                throw new IllegalArgumentException("Nenhum recurso permitido para " + instances.get(unitMembers[u][0]));
+            }
+        }
+
+        // Cada grupo de antiafinidade vira um grupo de conflito entre unidades
+        List<List<Integer>> groupsOfUnit = new ArrayList<>();
+        for (int u = 0; u < numUnits; u++) {
+            groupsOfUnit.add(new ArrayList<>());
+        }
+
+        for (int g = 0; g < antiAffinityGroups.size(); g++) {
+            BitSet units = new BitSet(numUnits);
+            for (String id : antiAffinityGroups.get(g)) {
+                int unit = unitOf[indexOf(instanceIndex, id)];
+                if (units.get(unit)) {
+                    throw new IllegalArgumentException("Instâncias com afinidade não podem ter antiafinidade: " + antiAffinityGroups.get(g));
+                }
+                units.set(unit);
+                groupsOfUnit.get(unit).add(g);
+            }
+        }
+
+        conflictGroups = new int[numUnits][];
+        for (int u = 0; u < numUnits; u++) {
+            conflictGroups[u] = groupsOfUnit.get(u).stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        // Cada grupo de antiafinidade precisa de um recurso permitido distinto para cada uma de suas unidades
+        for (int g = 0; g < antiAffinityGroups.size(); g++) {
+            int[] units = antiAffinityGroups.get(g).stream()
+                    .mapToInt(id -> unitOf[indexOf(instanceIndex, id)])
+                    .toArray();
+            if (!hasDistinctResources(units)) {
+                throw new IllegalArgumentException("Recursos permitidos insuficientes para a antiafinidade: " + antiAffinityGroups.get(g));
+            }
+        }
+
+        placementOrder = IntStream.range(0, numUnits).boxed()
+                .sorted(Comparator.<Integer>comparingInt(u -> allowedHosts[u].cardinality())
+                        .thenComparing(u -> -conflictGroups[u].length))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private static int indexOf(Map<String, Integer> instanceIndex, String id) {
+        Integer index = instanceIndex.get(id);
+        if (index == null) {
+            throw new IllegalArgumentException("Instância desconhecida: " + id);
+        }
+        return index;
+    }
+
+    /**
+     * Verifica, por emparelhamento bipartido, se cada unidade pode receber um recurso permitido diferente.
+     */
+    private boolean hasDistinctResources(int[] units) {
+        int[] unitOfResource = new int[resources.size()];
+        Arrays.fill(unitOfResource, -1);
+
+        for (int k = 0; k < units.length; k++) {
+            if (!assignResource(units, k, unitOfResource, new BitSet(resources.size()))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private boolean assignResource(int[] units, int k, int[] unitOfResource, BitSet visited) {
+        BitSet allowed = allowedHosts[units[k]];
+
+        for (int j = allowed.nextSetBit(0); j >= 0; j = allowed.nextSetBit(j + 1)) {
+            if (!visited.get(j)) {
+                visited.set(j);
+                if (unitOfResource[j] == -1 || assignResource(units, unitOfResource[j], unitOfResource, visited)) {
+                    unitOfResource[j] = k;
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    public int getUnitCount() {
+        return unitMembers.length;
+    }
+
+    public int getUnit(int instanceIndex) {
+        return unitOf[instanceIndex];
+    }
+
+    /**
+     * @return Uma cópia das instâncias da unidade.
+     */
+    public int[] getMembers(int unit) {
+        return unitMembers[unit].clone();
+    }
+
+    /**
+     * @return A primeira instância da unidade, que representa o recurso de toda a unidade.
+     */
+    public int getLeader(int unit) {
+        return unitMembers[unit][0];
+    }
+
+    /**
+     * @return Uma cópia das unidades ordenadas da mais restrita para a menos restrita.
+     */
+    public int[] getPlacementOrder() {
+        return placementOrder.clone();
+    }
+
+    /**
+     * Verifica se o índice foi compilado para os recursos e instâncias do arranjo.
+     */
+    public boolean appliesTo(@NotNull Arrangement arrangement) {
+        return resources.equals(arrangement.getResources()) && instances.equals(arrangement.getInstances());
+    }
+
+    public boolean isAllowed(int unit, int resourceIndex) {
+        return allowedHosts[unit].get(resourceIndex);
+    }
+
+    /**
+     * Cria a ocupação vazia: um bitset de grupos de conflito por recurso.
+     */
+    public BitSet[] newOccupancy() {
+        BitSet[] occupancy = new BitSet[resources.size()];
+        for (int j = 0; j < occupancy.length; j++) {
+            occupancy[j] = new BitSet();
+        }
+        return occupancy;
+    }
+
+    /**
+     * Monta a ocupação de um arranjo que já respeita as regras.
+     * Apenas a primeira instância de cada unidade é lida, por isso o arranjo deve satisfazer {@link #isSatisfiedBy}.
+     */
+    public BitSet[] occupancyOf(@NotNull Arrangement arrangement) {
+        BitSet[] occupancy = newOccupancy();
+        for (int u = 0; u < unitMembers.length; u++) {
+            int resourceIndex = arrangement.getResourceIndex(unitMembers[u][0]);
+            if (resourceIndex != -1) {
+                occupy(occupancy, u, resourceIndex);
+            }
+        }
+        return occupancy;
+    }
+
+    /**
+     * Verifica se a unidade pode ser alocada no recurso dada a ocupação atual.
+     */
+    public boolean canPlace(int unit, int resourceIndex, BitSet[] occupancy) {
+        if (!allowedHosts[unit].get(resourceIndex)) {
+            return false;
+        }
+
+        for (int group : conflictGroups[unit]) {
+            if (occupancy[resourceIndex].get(group)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Sorteia um recurso em que a unidade pode ser alocada.
+     *
+     * @param excludedResource Recurso a ser ignorado, ou -1.
+     * @return Índice do recurso sorteado, ou -1 se nenhum recurso for possível.
+     */
+    public int randomResource(int unit, BitSet[] occupancy, int excludedResource, @NotNull Random random) {
+        int chosen = -1;
+        int candidates = 0;
+
+        for (int j = allowedHosts[unit].nextSetBit(0); j >= 0; j = allowedHosts[unit].nextSetBit(j + 1)) {
+            if (j != excludedResource && canPlace(unit, j, occupancy)) {
+                // Amostragem de reservatório para sortear entre os candidatos sem alocar uma lista
+                candidates++;
+                if (random.nextInt(candidates) == 0) {
+                    chosen = j;
+                }
+            }
+        }
+
+        return chosen;
+    }
+
+    /**
+     * Aloca todas as instâncias da unidade no recurso e atualiza a ocupação.
+     */
+    public void place(@NotNull Arrangement arrangement, BitSet[] occupancy, int unit, int resourceIndex) {
+        for (int i : unitMembers[unit]) {
+            arrangement.setBit(resourceIndex, i, true);
+        }
+        occupy(occupancy, unit, resourceIndex);
+    }
+
+    /**
+     * Desaloca todas as instâncias da unidade do recurso e atualiza a ocupação.
+     * A unidade deve estar inteira no recurso, como em um arranjo que satisfaz {@link #isSatisfiedBy}.
+     */
+    public void remove(@NotNull Arrangement arrangement, BitSet[] occupancy, int unit, int resourceIndex) {
+        for (int i : unitMembers[unit]) {
+            arrangement.setBit(resourceIndex, i, false);
+        }
+        for (int group : conflictGroups[unit]) {
+            occupancy[resourceIndex].clear(group);
+        }
+    }
+
+    private void occupy(BitSet[] occupancy, int unit, int resourceIndex) {
+        for (int group : conflictGroups[unit]) {
+            occupancy[resourceIndex].set(group);
+        }
+    }
+
+    /**
+     * Verifica se o arranjo aloca cada instância exatamente uma vez e respeita todas as regras.
+     */
+    public boolean isSatisfiedBy(@NotNull Arrangement arrangement) {
+        BitSet[] occupancy = newOccupancy();
+
+        for (int u = 0; u < unitMembers.length; u++) {
+            int resourceIndex = -1;
+
+            for (int i : unitMembers[u]) {
+                int allocated = 0;
+                for (int j = 0; j < resources.size(); j++) {
+                    if (arrangement.getBit(j, i)) {
+                        allocated++;
+                        resourceIndex = resourceIndex == -1 ? j : resourceIndex;
+                        if (j != resourceIndex) {
+                            return false;
+                        }
+                    }
+                }
+                if (allocated != 1) {
+                    return false;
+                }
+            }
+
+            if (!canPlace(u, resourceIndex, occupancy)) {
+                return false;
+            }
+            occupy(occupancy, u, resourceIndex);
+        }
+
+        return true;
+    }
+}
@@ -4,6 +4,7 @@ import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.*;
+import java.util.concurrent.Flow;
 
 @Slf4j
 public class GeneticAlgorithm {
@@ -14,30 +15,48 @@ public class GeneticAlgorithm {
     final Population population;
     private final List<PhysicalResource> physicalResources;
     private final List<VirtualInstance> virtualInstances;
-    @Getter
-    private char[] solution;
+    /**
+     * Melhor solução encontrada, ou null antes da primeira melhoria
+     */
+    private volatile SolutionSnapshot bestSolution;
     @Getter
     private double solutionFitness;
+    private volatile SolutionPublisher solutionPublisher = new SolutionPublisher();
 
     public GeneticAlgorithm() {
-        population = new Population();
+        this(new PlacementConstraints());
+    }
 
-        physicalResources = Arrays.asList(
+    /**
+     * @param constraints Regras de posicionamento respeitadas por todos os arranjos gerados.
+     */
+    public GeneticAlgorithm(PlacementConstraints constraints) {
+        this(Arrays.asList(
                 new PhysicalResource("p0", 4096),
                 new PhysicalResource("p1", 2048),
                 new PhysicalResource("p2", 1024),
                 new PhysicalResource("p3", 1024),
                 new PhysicalResource("p4", 1024)
-        );
-
-        virtualInstances = Arrays.asList(
+        ), Arrays.asList(
                 new VirtualInstance("v0", 2048),
                 new VirtualInstance("v1", 1024),
                 new VirtualInstance("v2", 512),
                 new VirtualInstance("v3", 512),
                 new VirtualInstance("v4", 512),
                 new VirtualInstance("v7", 512)
-        );
+        ), constraints);
+    }
+
+    /**
+     * @param physicalResources Recursos físicos disponíveis.
+     * @param virtualInstances  Instâncias virtuais a serem alocadas.
+     * @param constraints       Regras de posicionamento respeitadas por todos os arranjos gerados.
+     */
+    public GeneticAlgorithm(List<PhysicalResource> physicalResources, List<VirtualInstance> virtualInstances,
+                            PlacementConstraints constraints) {
+        population = new Population();
+        this.physicalResources = physicalResources;
+        this.virtualInstances = virtualInstances;
 
         int totalMemory = physicalResources.stream().mapToInt(PhysicalResource::getTotalMemory).sum();
         int totalMemoryRequired = virtualInstances.stream().mapToInt(VirtualInstance::getMemoryRequirement).sum();
@@ -50,9 +69,8 @@ public class GeneticAlgorithm {
         System.out.println("Memória requerida: " + totalMemoryRequired + "MB");
 
         // Gera uma população inicial
-        population.generateInitialPopulation(POPULATION_SIZE, physicalResources, virtualInstances);
+        population.generateInitialPopulation(POPULATION_SIZE, physicalResources, virtualInstances, constraints);
         mutationRate = 1.0 / (physicalResources.size() * virtualInstances.size());
-        solution = new char[physicalResources.size() * virtualInstances.size()];
     }
 
     public static void main(String[] args) {
@@ -65,6 +83,27 @@ public class GeneticAlgorithm {
         System.out.println("Eficiência: " + ga.getSolutionFitness());
     }
 
+    /**
+     * @return Uma cópia dos genes do melhor arranjo encontrado.
+     */
+    public char[] getSolution() {
+        if (bestSolution == null) {
+            return new char[physicalResources.size() * virtualInstances.size()];
+        }
+        return bestSolution.getGenes();
+    }
+
+    /**
+     * Publicador que emite um {@link SolutionSnapshot} sempre que a melhor solução melhora.
+     * Cada chamada de {@link #run()} tem seu próprio publicador, encerrado ao fim da execução.
+     * Este método retorna o da execução em andamento ou o da última execução; quem assina depois do fim
+     * recebe a solução final e o encerramento. Um novo publicador só é criado quando {@link #run()} é chamado de novo.
+     * Para agir sobre soluções parciais, assine antes e execute {@link #run()} em outra thread.
+     */
+    public Flow.Publisher<SolutionSnapshot> getSolutionPublisher() {
+        return solutionPublisher;
+    }
+
     private void select() {
         population.setArrangements(population.select(TOURNAMENT_SIZE));
     }
@@ -94,6 +133,28 @@ public class GeneticAlgorithm {
     }
 
     public void run() {
+        SolutionPublisher publisher = solutionPublisher;
+
+        // O publicador da execução anterior continua disponível até que uma nova execução comece
+        if (publisher.isClosed()) {
+            publisher = new SolutionPublisher();
+            if (bestSolution != null) {
+                publisher.offer(bestSolution);
+            }
+            solutionPublisher = publisher;
+        }
+
+        try {
+            evolve(publisher);
+        } catch (Throwable t) {
+            publisher.closeExceptionally(t);
+            throw t;
+        }
+
+        publisher.close();
+    }
+
+    private void evolve(SolutionPublisher publisher) {
         for (int i = 0; i < NUM_GENERATIONS; i++) {
             select();
             crossover();
@@ -109,7 +170,8 @@ public class GeneticAlgorithm {
 
                 if (mostEfficientArrangementFitness > solutionFitness) {
                     solutionFitness = mostEfficientArrangementFitness;
-                    solution = mostEfficientArrangement.getGenes();
+                    bestSolution = new SolutionSnapshot(mostEfficientArrangement.getGenes(), solutionFitness, i);
+                    publisher.offer(bestSolution);
                 }
             }
 
@@ -122,6 +184,7 @@ public class GeneticAlgorithm {
     public String getSolutionString() {
         int numResources = physicalResources.size();
         int numInstances = virtualInstances.size();
+        char[] solution = getSolution();
 
         StringBuilder sb = new StringBuilder("[\n");
 
@@ -140,6 +203,7 @@ public class GeneticAlgorithm {
     public String getStatsString() {
         int numResources = physicalResources.size();
         int numInstances = virtualInstances.size();
+        char[] solution = getSolution();
 
         StringBuilder sb = new StringBuilder("\n");
 
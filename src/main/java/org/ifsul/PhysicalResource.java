@@ -1,8 +1,11 @@
 package org.ifsul;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.Set;
+
 /**
  * Representa um recurso físico, como um servidor.
  * Sua capacidade é medida em memória.
@@ -20,9 +23,25 @@ public class PhysicalResource {
      */
     int totalMemory;
 
+    /**
+     * Rótulos livres do recurso, como rack ou presença de GPU.
+     * São imutáveis, pois as regras de posicionamento compiladas dependem deles.
+     */
+    @Setter(AccessLevel.NONE)
+    Set<String> labels;
+
     public PhysicalResource(String id, int totalMemory) {
+        this(id, totalMemory, Set.of());
+    }
+
+    public PhysicalResource(String id, int totalMemory, Set<String> labels) {
         this.id = id;
         this.totalMemory = totalMemory;
+        this.labels = Set.copyOf(labels);
+    }
+
+    public boolean hasLabel(String label) {
+        return labels.contains(label);
     }
 
     @Override
@@ -0,0 +1,87 @@
+package org.ifsul;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Regras de posicionamento das instâncias virtuais nos recursos físicos.
+ * As regras são declaradas pelos identificadores e compiladas em um {@link ConstraintIndex}
+ * para uma lista concreta de recursos e instâncias.
+ */
+public class PlacementConstraints {
+    private final List<List<String>> affinityGroups = new ArrayList<>();
+    private final List<List<String>> antiAffinityGroups = new ArrayList<>();
+    private final Map<String, List<Predicate<PhysicalResource>>> hostRestrictions = new HashMap<>();
+
+    /**
+     * Exige que as instâncias sejam alocadas no mesmo recurso físico.
+     *
+     * @param instanceIds Identificadores das instâncias virtuais, pelo menos dois.
+     */
+    public PlacementConstraints affinity(@NotNull String... instanceIds) {
+        affinityGroups.add(group(instanceIds));
+        return this;
+    }
+
+    /**
+     * Exige que as instâncias sejam alocadas em recursos físicos distintos.
+     *
+     * @param instanceIds Identificadores das instâncias virtuais, pelo menos dois.
+     */
+    public PlacementConstraints antiAffinity(@NotNull String... instanceIds) {
+        antiAffinityGroups.add(group(instanceIds));
+        return this;
+    }
+
+    private static List<String> group(String[] instanceIds) {
+        if (instanceIds.length < 2) {
+            throw new IllegalArgumentException("Um grupo precisa de pelo menos duas instâncias: " + Arrays.toString(instanceIds));
+        }
+        if (Arrays.stream(instanceIds).distinct().count() != instanceIds.length) {
+            throw new IllegalArgumentException("Instância repetida no grupo: " + Arrays.toString(instanceIds));
+        }
+        return List.of(instanceIds);
+    }
+
+    /**
+     * Restringe a instância aos recursos físicos aceitos pelo predicado.
+     *
+     * @param instanceId Identificador da instância virtual.
+     * @param allowed    Predicado que aceita os recursos permitidos.
+     */
+    public PlacementConstraints restrictHosts(@NotNull String instanceId, @NotNull Predicate<PhysicalResource> allowed) {
+        hostRestrictions.computeIfAbsent(instanceId, id -> new ArrayList<>()).add(allowed);
+        return this;
+    }
+
+    /**
+     * Impede que a instância seja alocada nos recursos físicos informados.
+     *
+     * @param instanceId  Identificador da instância virtual.
+     * @param resourceIds Identificadores dos recursos físicos proibidos.
+     */
+    public PlacementConstraints excludeHosts(@NotNull String instanceId, @NotNull String... resourceIds) {
+        Set<String> excluded = Set.of(resourceIds);
+        return restrictHosts(instanceId, resource -> !excluded.contains(resource.getId()));
+    }
+
+    /**
+     * Compila as regras em índices de bitsets para os recursos e instâncias informados.
+     * <p>
+     * Cada grupo de antiafinidade é verificado isoladamente; grupos sobrepostos que só são
+     * impossíveis em conjunto são detectados apenas ao gerar a população.
+     *
+     * @throws IllegalArgumentException se uma regra referenciar uma instância desconhecida
+     *                                  ou se as regras forem contraditórias.
+     */
+    public ConstraintIndex compile(@NotNull List<PhysicalResource> resources, @NotNull List<VirtualInstance> instances) {
+        return new ConstraintIndex(resources, instances, affinityGroups, antiAffinityGroups, hostRestrictions);
+    }
+}
@@ -7,6 +7,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Random;
@@ -16,8 +17,18 @@ import java.util.Random;
 public class Population {
     private static final Logger logger = LoggerFactory.getLogger(Population.class);
 
+    /**
+     * Número máximo de tentativas de gerar um arranjo que respeite as regras de posicionamento.
+     */
+    private static final int MAX_PLACEMENT_ATTEMPTS = 100;
+
     private List<Arrangement> arrangements;
 
+    /**
+     * Regras de posicionamento compiladas usadas para gerar, cruzar e mutar os arranjos.
+     */
+    private ConstraintIndex constraints;
+
     public Population() {
         this.arrangements = new ArrayList<>();
     }
@@ -30,20 +41,68 @@ public class Population {
      * @param instances Lista de instâncias virtuais a serem alocadas.
      */
     public void generateInitialPopulation(int size, List<PhysicalResource> resources, List<VirtualInstance> instances) {
-        int numResources = resources.size();
-        int numInstances = instances.size();
+        generateInitialPopulation(size, resources, instances, new PlacementConstraints());
+    }
+
+    /**
+     * Gera uma população inicial de arranjos que respeitam as regras de posicionamento.
+     *
+     * @param size        O tamanho da população.
+     * @param resources   Lista de recursos físicos disponíveis.
+     * @param instances   Lista de instâncias virtuais a serem alocadas.
+     * @param constraints Regras de posicionamento das instâncias.
+     */
+    public void generateInitialPopulation(int size, List<PhysicalResource> resources, List<VirtualInstance> instances,
+                                          @NotNull PlacementConstraints constraints) {
+        this.constraints = constraints.compile(resources, instances);
         Random random = new Random();
 
         for (int i = 0; i < size; i++) {
-            Arrangement arrangement = new Arrangement(resources, instances);
+            arrangements.add(randomArrangement(this.constraints, random));
+        }
+    }
+
+    /**
+     * Gera um arranjo aleatório, alocando primeiro as unidades mais restritas.
+     *
+     * @throws IllegalStateException se nenhum arranjo válido for encontrado.
+     */
+    private Arrangement randomArrangement(ConstraintIndex index, Random random) {
+        for (int attempt = 0; attempt < MAX_PLACEMENT_ATTEMPTS; attempt++) {
+            Arrangement arrangement = new Arrangement(index.getResources(), index.getInstances());
+            BitSet[] occupancy = index.newOccupancy();
+            boolean placed = true;
+
+            for (int unit : index.getPlacementOrder()) {
+                int resource = index.randomResource(unit, occupancy, -1, random);
+                if (resource == -1) {
+                    placed = false;
+                    break;
+                }
+                index.place(arrangement, occupancy, unit, resource);
+            }
 
-            for (int j = 0; j < numInstances; j++) {
-                int allocatedResource = random.nextInt(numResources);
-                arrangement.setBit(allocatedResource, j, true);
+            if (placed) {
+                return arrangement;
             }
+        }
+
+        throw new IllegalStateException("Não foi possível gerar um arranjo que respeite as regras de posicionamento");
+    }
 
-            arrangements.add(arrangement);
+    /**
+     * Retorna as regras compiladas para o arranjo, compilando regras vazias se a população não tiver nenhuma.
+     *
+     * @throws IllegalArgumentException se o arranjo usar outros recursos ou instâncias que não os da população.
+     */
+    private ConstraintIndex constraintsFor(Arrangement arrangement) {
+        if (constraints == null) {
+            constraints = new PlacementConstraints().compile(arrangement.getResources(), arrangement.getInstances());
+        }
+        if (!constraints.appliesTo(arrangement)) {
+            throw new IllegalArgumentException("O arranjo não usa os recursos e instâncias da população");
         }
+        return constraints;
     }
 
     /**
@@ -81,81 +140,70 @@ public class Population {
 
     /**
      * Combina arranjos para criar novos.
+     * Cada unidade herda o recurso de um dos pais; se nenhum deles for permitido no filho,
+     * a unidade é realocada em um recurso aleatório permitido. Se não houver recurso possível,
+     * o filho é uma cópia do primeiro pai.
      *
-     * @return Uma lista de novos arranjos.
+     * @return Um novo arranjo.
      */
     public Arrangement crossover(@NotNull Arrangement parent1, @NotNull Arrangement parent2) {
         // Supõe-se que parent1 e parent2 têm o mesmo tamanho de cromossomo
-        int numResources = parent1.getResources().size();
-        int numInstances = parent1.getInstances().size();
+        ConstraintIndex index = constraintsFor(parent1);
         Random random = new Random();
 
         Arrangement child = new Arrangement(parent1.getResources(), parent1.getInstances());
+        BitSet[] occupancy = index.newOccupancy();
 
-        for (int i = 0; i < numInstances; i++) {
-            for (int j = 0; j < numResources; j++) {
-                boolean bit = random.nextBoolean() ? parent1.getBit(j, i) : parent2.getBit(j, i);
+        for (int unit : index.getPlacementOrder()) {
+            int instance = index.getLeader(unit);
+            Arrangement first = random.nextBoolean() ? parent1 : parent2;
+            Arrangement second = first == parent1 ? parent2 : parent1;
 
-                // verica se esta instancia já foi alocada em outro recurso
-                for (int k = 0; k < numResources; k++) {
-                    if (child.getBit(k, i) && k != j) {
-                        bit = false;
-                    }
-                }
-
-                child.setBit(j, i, bit);
+            int resource = first.getResourceIndex(instance);
+            if (resource == -1 || !index.canPlace(unit, resource, occupancy)) {
+                resource = second.getResourceIndex(instance);
             }
-        }
-
-        // Se o filho não tiver alocado todas as instâncias, aloca as restantes aleatoriamente
-        for (int i = 0; i < numInstances; i++) {
-            boolean allocated = false;
-            for (int j = 0; j < numResources; j++) {
-                if (child.getBit(j, i)) {
-                    allocated = true;
-                    break;
-                }
+            if (resource == -1 || !index.canPlace(unit, resource, occupancy)) {
+                resource = index.randomResource(unit, occupancy, -1, random);
             }
 
-            if (!allocated) {
-                int allocatedResource = random.nextInt(numResources);
-                child.setBit(allocatedResource, i, true);
+            // As escolhas anteriores tornaram a unidade impossível de alocar; o primeiro pai já é válido
+            if (resource == -1) {
+                System.arraycopy(parent1.getGenes(), 0, child.getGenes(), 0, child.getGenes().length);
+                return child;
             }
+
+            index.place(child, occupancy, unit, resource);
         }
 
         return child;
     }
 
     /**
-     * Aplica mutações aleatórias.
+     * Aplica mutações aleatórias, movendo unidades apenas para recursos permitidos.
+     * O arranjo deve respeitar as regras de posicionamento, como todos os arranjos gerados pela população.
      */
     public Arrangement mutate(@NotNull Arrangement arrangement, double mutationRate) {
-        int numResources = arrangement.getResources().size();
-        int numInstances = arrangement.getInstances().size();
+        ConstraintIndex index = constraintsFor(arrangement);
+        assert index.isSatisfiedBy(arrangement) : "O arranjo não respeita as regras de posicionamento";
+
+        // A ocupação só é montada se alguma unidade for de fato mutada
+        BitSet[] occupancy = null;
         Random random = new Random();
 
-        for (int i = 0; i < numInstances; i++) {
+        for (int unit = 0; unit < index.getUnitCount(); unit++) {
             if (random.nextDouble() < mutationRate) {
-                // Encontra o recurso atual em que a instância está alocada
-                int currentResource = -1;
-                for (int j = 0; j < numResources; j++) {
-                    if (arrangement.getBit(j, i)) {
-                        currentResource = j;
-                        break;
-                    }
+                if (occupancy == null) {
+                    occupancy = index.occupancyOf(arrangement);
                 }
 
-                // Escolhe um novo recurso aleatório diferente do atual para alocar a instância
-                int newResource;
-                do {
-                    newResource = random.nextInt(numResources);
-                } while (newResource == currentResource);
+                // Libera o recurso atual antes de sortear, para que a unidade não conflite consigo mesma
+                int currentResource = arrangement.getResourceIndex(index.getLeader(unit));
+                index.remove(arrangement, occupancy, unit, currentResource);
 
-                // Desaloca da posição antiga e aloca na nova posição
-                if (currentResource != -1) {
-                    arrangement.setBit(currentResource, i, false);
-                }
-                arrangement.setBit(newResource, i, true);
+                // Escolhe um novo recurso permitido diferente do atual, ou mantém o atual se não houver outro
+                int newResource = index.randomResource(unit, occupancy, currentResource, random);
+                index.place(arrangement, occupancy, unit, newResource == -1 ? currentResource : newResource);
             }
         }
 
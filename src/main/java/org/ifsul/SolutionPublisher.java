@@ -0,0 +1,212 @@
+package org.ifsul;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Publica as melhorias da solução durante a execução do algoritmo.
+ * <p>
+ * Cada assinante guarda apenas o instantâneo mais recente ainda não entregue: se o assinante for
+ * mais lento que o algoritmo, os instantâneos intermediários são descartados e ele recebe só o último.
+ * As entregas acontecem no {@link Executor} do publicador, então um assinante lento nunca bloqueia o algoritmo.
+ * Quem assina depois de uma melhoria recebe de imediato a melhor solução atual.
+ */
+@Slf4j
+public class SolutionPublisher implements Flow.Publisher<SolutionSnapshot> {
+    private final Executor executor;
+    private final List<CoalescingSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private SolutionSnapshot current;
+    private volatile boolean closed;
+    private Throwable failure;
+
+    public SolutionPublisher() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param executor Executor usado para entregar os instantâneos aos assinantes.
+     */
+    public SolutionPublisher(@NotNull Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(@NotNull Flow.Subscriber<? super SolutionSnapshot> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        CoalescingSubscription subscription = new CoalescingSubscription(subscriber);
+
+        synchronized (this) {
+            if (current != null) {
+                subscription.latest.set(current);
+            }
+
+            if (closed) {
+                subscription.done = true;
+                subscription.error = failure;
+            } else {
+                subscriptions.add(subscription);
+            }
+        }
+
+        // O código do assinante roda fora do monitor para não bloquear offer();
+        // um cancel() dentro de onSubscribe remove a assinatura já registrada
+        try {
+            subscriber.onSubscribe(subscription);
+        } catch (Throwable t) {
+            // Um assinante que falhou em onSubscribe é descartado sem receber mais sinais
+            log.warn("Assinante descartado após falha em onSubscribe", t);
+            subscription.cancel();
+            return;
+        }
+
+        // Libera as entregas retidas enquanto onSubscribe executava
+        executor.execute(subscription::drain);
+    }
+
+    /**
+     * Publica uma nova melhor solução, substituindo a que ainda não foi entregue a cada assinante.
+     */
+    public synchronized void offer(@NotNull SolutionSnapshot snapshot) {
+        if (closed) {
+            throw new IllegalStateException("Publicador encerrado");
+        }
+
+        current = snapshot;
+        for (CoalescingSubscription subscription : subscriptions) {
+            subscription.latest.set(snapshot);
+            subscription.signal();
+        }
+    }
+
+    /**
+     * Encerra a publicação. Cada assinante recebe o último instantâneo pendente e depois {@code onComplete}.
+     */
+    public void close() {
+        closeExceptionally(null);
+    }
+
+    /**
+     * Encerra a publicação com erro. Cada assinante recebe o último instantâneo pendente e depois {@code onError}.
+     */
+    public synchronized void closeExceptionally(Throwable error) {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        failure = error;
+        for (CoalescingSubscription subscription : subscriptions) {
+            subscription.error = error;
+            subscription.done = true;
+            subscription.signal();
+        }
+        subscriptions.clear();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    private class CoalescingSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super SolutionSnapshot> subscriber;
+        private final AtomicReference<SolutionSnapshot> latest = new AtomicReference<>();
+        private final AtomicLong demand = new AtomicLong();
+        /**
+         * Começa em 1 para reter as entregas até que {@code onSubscribe} termine
+         */
+        private final AtomicInteger pendingSignals = new AtomicInteger(1);
+        private volatile boolean done;
+        private volatile Throwable error;
+        private volatile boolean cancelled;
+
+        CoalescingSubscription(Flow.Subscriber<? super SolutionSnapshot> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                // O erro passa pelo drain para não ser concorrente com onNext nem posterior a onComplete
+                synchronized (SolutionPublisher.this) {
+                    subscriptions.remove(this);
+                    latest.set(null);
+                    error = new IllegalArgumentException("A demanda deve ser positiva: " + n);
+                    done = true;
+                }
+                signal();
+                return;
+            }
+
+            demand.getAndUpdate(d -> d + n < 0 ? Long.MAX_VALUE : d + n);
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+        }
+
+        /**
+         * Agenda uma entrega, garantindo que apenas uma esteja em andamento por assinante.
+         */
+        void signal() {
+            if (pendingSignals.getAndIncrement() == 0) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+
+            while (true) {
+                if (cancelled) {
+                    return;
+                }
+
+                while (demand.get() > 0) {
+                    SolutionSnapshot snapshot = latest.getAndSet(null);
+                    if (snapshot == null) {
+                        break;
+                    }
+
+                    demand.decrementAndGet();
+                    try {
+                        subscriber.onNext(snapshot);
+                    } catch (Throwable t) {
+                        // Um assinante que falhou em onNext é descartado sem receber mais sinais
+                        log.warn("Assinante descartado após falha em onNext", t);
+                        cancel();
+                        return;
+                    }
+                }
+
+                // O último instantâneo é entregue antes do encerramento
+                if (done && latest.get() == null) {
+                    cancelled = true;
+                    if (error != null) {
+                        subscriber.onError(error);
+                    } else {
+                        subscriber.onComplete();
+                    }
+                    return;
+                }
+
+                missed = pendingSignals.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.ifsul;
+
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Cópia imutável da melhor solução encontrada até uma geração.
+ */
+@Getter
+public final class SolutionSnapshot {
+    /**
+     * Genes do melhor arranjo, no mesmo formato de {@link Arrangement#getGenes()}
+     */
+    private final char[] genes;
+
+    /**
+     * Eficiência do arranjo
+     */
+    private final double fitness;
+
+    /**
+     * Geração em que o arranjo foi encontrado
+     */
+    private final int generation;
+
+    public SolutionSnapshot(@NotNull char[] genes, double fitness, int generation) {
+        this.genes = genes.clone();
+        this.fitness = fitness;
+        this.generation = generation;
+    }
+
+    /**
+     * @return Uma cópia dos genes, para que o instantâneo não possa ser alterado.
+     */
+    public char[] getGenes() {
+        return genes.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "SolutionSnapshot{generation=" + generation + ", fitness=" + fitness + ", genes='" + String.valueOf(genes) + "'}";
+    }
+}
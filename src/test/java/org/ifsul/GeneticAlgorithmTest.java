@@ -0,0 +1,116 @@
+package org.ifsul;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeneticAlgorithmTest {
+
+    /**
+     * Assinante que pede todos os instantâneos e avisa quando a publicação termina.
+     */
+    static class CollectingSubscriber implements Flow.Subscriber<SolutionSnapshot> {
+        final List<SolutionSnapshot> received = new CopyOnWriteArrayList<>();
+        final CountDownLatch completed = new CountDownLatch(1);
+        volatile Throwable error;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(SolutionSnapshot item) {
+            received.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+    }
+
+    @Test
+    void solutionPublisherTest() throws InterruptedException {
+        GeneticAlgorithm ga = new GeneticAlgorithm();
+        CollectingSubscriber subscriber = new CollectingSubscriber();
+        ga.getSolutionPublisher().subscribe(subscriber);
+
+        ga.run();
+
+        assertTrue(subscriber.completed.await(10, TimeUnit.SECONDS));
+        assertNull(subscriber.error);
+        assertFalse(subscriber.received.isEmpty());
+
+        // Cada instantâneo entregue é uma melhoria em relação ao anterior
+        for (int i = 1; i < subscriber.received.size(); i++) {
+            assertTrue(subscriber.received.get(i).getFitness() > subscriber.received.get(i - 1).getFitness());
+            assertTrue(subscriber.received.get(i).getGeneration() > subscriber.received.get(i - 1).getGeneration());
+        }
+
+        // O último instantâneo é a solução final
+        SolutionSnapshot last = subscriber.received.get(subscriber.received.size() - 1);
+        assertEquals(ga.getSolutionFitness(), last.getFitness());
+        assertArrayEquals(ga.getSolution(), last.getGenes());
+    }
+
+    @Test
+    void subscribeAfterRunTest() throws InterruptedException {
+        GeneticAlgorithm ga = new GeneticAlgorithm();
+        ga.run();
+
+        // Quem assina depois do fim recebe a solução final e o encerramento
+        CollectingSubscriber subscriber = new CollectingSubscriber();
+        ga.getSolutionPublisher().subscribe(subscriber);
+
+        assertTrue(subscriber.completed.await(10, TimeUnit.SECONDS));
+        assertNull(subscriber.error);
+        assertEquals(1, subscriber.received.size());
+        assertEquals(ga.getSolutionFitness(), subscriber.received.get(0).getFitness());
+        assertArrayEquals(ga.getSolution(), subscriber.received.get(0).getGenes());
+    }
+
+    @Test
+    void runTwiceTest() throws InterruptedException {
+        GeneticAlgorithm ga = new GeneticAlgorithm();
+        ga.run();
+        Flow.Publisher<SolutionSnapshot> first = ga.getSolutionPublisher();
+        double firstFitness = ga.getSolutionFitness();
+
+        // A segunda execução continua evoluindo em um novo publicador, que começa pela melhor solução anterior
+        assertDoesNotThrow(ga::run);
+        assertNotSame(first, ga.getSolutionPublisher());
+        assertTrue(ga.getSolutionFitness() >= firstFitness);
+
+        CollectingSubscriber subscriber = new CollectingSubscriber();
+        ga.getSolutionPublisher().subscribe(subscriber);
+
+        assertTrue(subscriber.completed.await(10, TimeUnit.SECONDS));
+        assertNull(subscriber.error);
+        assertEquals(ga.getSolutionFitness(), subscriber.received.get(subscriber.received.size() - 1).getFitness());
+    }
+
+    @Test
+    void getSolutionIsCopyTest() {
+        GeneticAlgorithm ga = new GeneticAlgorithm();
+        ga.run();
+
+        char[] solution = ga.getSolution();
+        char[] expected = solution.clone();
+        solution[0] = solution[0] == '1' ? '0' : '1';
+
+        assertArrayEquals(expected, ga.getSolution());
+    }
+}
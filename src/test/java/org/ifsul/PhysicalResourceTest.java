@@ -2,7 +2,10 @@ package org.ifsul;
 
 import org.junit.jupiter.api.Test;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 class PhysicalResourceTest {
     @Test
@@ -11,4 +14,15 @@ class PhysicalResourceTest {
         assertEquals("1", resource.getId());
     }
 
+    @Test
+    void labelsAreImmutableTest() {
+        Set<String> labels = new HashSet<>(Set.of("rack-a"));
+        PhysicalResource resource = new PhysicalResource("p0", 1024, labels);
+
+        labels.add("gpu");
+        assertFalse(resource.hasLabel("gpu"));
+        assertThrows(UnsupportedOperationException.class, () -> resource.getLabels().add("gpu"));
+        assertThrows(NullPointerException.class, () -> new PhysicalResource("p1", 1024, null));
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,137 @@
+package org.ifsul;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlacementConstraintsTest {
+
+    final List<PhysicalResource> resources = Arrays.asList(
+            new PhysicalResource("p0", 2048, Set.of("rack-a")),
+            new PhysicalResource("p1", 2048, Set.of("rack-a", "gpu")),
+            new PhysicalResource("p2", 2048, Set.of("rack-b"))
+    );
+
+    final List<VirtualInstance> instances = Arrays.asList(
+            new VirtualInstance("v0", 512),
+            new VirtualInstance("v1", 512),
+            new VirtualInstance("v2", 512),
+            new VirtualInstance("v3", 512)
+    );
+
+    final PlacementConstraints constraints = new PlacementConstraints()
+            .antiAffinity("v0", "v1", "v2")
+            .affinity("v2", "v3")
+            .restrictHosts("v0", r -> r.hasLabel("rack-a") && !r.hasLabel("gpu"));
+
+    @Test
+    void compileTest() {
+        ConstraintIndex index = constraints.compile(resources, instances);
+
+        // v2 e v3 formam uma única unidade
+        assertEquals(3, index.getUnitCount());
+        assertEquals(index.getUnit(2), index.getUnit(3));
+
+        // v0 só pode ir para p0
+        assertTrue(index.isAllowed(index.getUnit(0), 0));
+        assertFalse(index.isAllowed(index.getUnit(0), 1));
+        assertFalse(index.isAllowed(index.getUnit(0), 2));
+
+        // A unidade mais restrita é alocada primeiro
+        assertEquals(index.getUnit(0), index.getPlacementOrder()[0]);
+    }
+
+    @Test
+    void invalidConstraintsTest() {
+        // Instância desconhecida
+        assertThrows(IllegalArgumentException.class,
+                () -> new PlacementConstraints().affinity("v0", "v9").compile(resources, instances));
+
+        // Nenhum recurso permitido
+        assertThrows(IllegalArgumentException.class,
+                () -> new PlacementConstraints().excludeHosts("v0", "p0", "p1", "p2").compile(resources, instances));
+
+        // Grupos vazios ou com uma única instância
+        assertThrows(IllegalArgumentException.class, () -> new PlacementConstraints().affinity());
+        assertThrows(IllegalArgumentException.class, () -> new PlacementConstraints().antiAffinity("v0"));
+
+        // Instância repetida no mesmo grupo
+        assertThrows(IllegalArgumentException.class, () -> new PlacementConstraints().antiAffinity("v0", "v0"));
+
+        // Antiafinidade entre mais instâncias do que recursos permitidos
+        assertThrows(IllegalArgumentException.class,
+                () -> new PlacementConstraints().antiAffinity("v0", "v1", "v2", "v3").compile(resources, instances));
+        assertThrows(IllegalArgumentException.class,
+                () -> new PlacementConstraints().antiAffinity("v0", "v1")
+                        .excludeHosts("v0", "p1", "p2")
+                        .excludeHosts("v1", "p1", "p2")
+                        .compile(resources, instances));
+
+        // Afinidade e antiafinidade ao mesmo tempo
+        assertThrows(IllegalArgumentException.class,
+                () -> new PlacementConstraints().affinity("v0", "v1").antiAffinity("v0", "v1").compile(resources, instances));
+    }
+
+    @Test
+    void populationRespectsConstraintsTest() {
+        Population population = new Population();
+        population.generateInitialPopulation(20, resources, instances, constraints);
+        ConstraintIndex index = population.getConstraints();
+
+        for (Arrangement arrangement : population.getArrangements()) {
+            assertTrue(index.isSatisfiedBy(arrangement));
+        }
+
+        // Cruzamento e mutação só geram arranjos válidos
+        for (int i = 0; i < 100; i++) {
+            Arrangement child = population.crossover(population.getArrangements().get(i % 20), population.getArrangements().get((i + 1) % 20));
+            assertTrue(index.isSatisfiedBy(child));
+            assertTrue(index.isSatisfiedBy(population.mutate(child, 1.0)));
+        }
+    }
+
+    @Test
+    void foreignArrangementTest() {
+        Population population = new Population();
+        population.generateInitialPopulation(2, resources, instances, constraints);
+
+        // Um arranjo de outros recursos não pode apagar as regras da população
+        List<PhysicalResource> otherResources = List.of(new PhysicalResource("p9", 1024));
+        Arrangement foreign = new Arrangement(otherResources, instances);
+        assertThrows(IllegalArgumentException.class, () -> population.mutate(foreign, 1.0));
+        assertTrue(population.getConstraints().appliesTo(population.getArrangements().get(0)));
+    }
+
+    @Test
+    void indexIsNotAliasedTest() {
+        ConstraintIndex index = constraints.compile(resources, instances);
+        int first = index.getPlacementOrder()[0];
+
+        index.getPlacementOrder()[0] = -1;
+        index.getMembers(index.getUnit(2))[0] = -1;
+
+        assertEquals(first, index.getPlacementOrder()[0]);
+        assertEquals(2, index.getLeader(index.getUnit(2)));
+    }
+
+    @Test
+    void isSatisfiedByTest() {
+        ConstraintIndex index = constraints.compile(resources, instances);
+        Arrangement arrangement = new Arrangement(resources, instances);
+
+        arrangement.setBit(0, 0, true);
+        arrangement.setBit(1, 1, true);
+        arrangement.setBit(2, 2, true);
+        arrangement.setBit(2, 3, true);
+        assertTrue(index.isSatisfiedBy(arrangement));
+
+        // v1 no mesmo recurso que v0 viola a antiafinidade
+        arrangement.setBit(1, 1, false);
+        arrangement.setBit(0, 1, true);
+        assertFalse(index.isSatisfiedBy(arrangement));
+    }
+}
@@ -0,0 +1,176 @@
+package org.ifsul;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolutionPublisherTest {
+
+    /**
+     * Assinante que registra o que recebe e só pede mais instantâneos quando o teste mandar.
+     */
+    static class RecordingSubscriber implements Flow.Subscriber<SolutionSnapshot> {
+        final List<SolutionSnapshot> received = new ArrayList<>();
+        Flow.Subscription subscription;
+        boolean completed;
+        Throwable error;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(SolutionSnapshot item) {
+            received.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+
+    static SolutionSnapshot snapshot(int generation) {
+        return new SolutionSnapshot(new char[]{'1', '0'}, generation, generation);
+    }
+
+    @Test
+    void coalescingTest() {
+        // Executor síncrono para que as entregas sejam determinísticas
+        SolutionPublisher publisher = new SolutionPublisher(Runnable::run);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+
+        subscriber.subscription.request(1);
+        publisher.offer(snapshot(0));
+        publisher.offer(snapshot(1));
+        publisher.offer(snapshot(2));
+
+        // Sem demanda, as melhorias intermediárias são descartadas e só a última fica pendente
+        assertEquals(1, subscriber.received.size());
+        assertEquals(0, subscriber.received.get(0).getGeneration());
+
+        subscriber.subscription.request(5);
+        assertEquals(2, subscriber.received.size());
+        assertEquals(2, subscriber.received.get(1).getGeneration());
+    }
+
+    @Test
+    void closeTest() {
+        SolutionPublisher publisher = new SolutionPublisher(Runnable::run);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+
+        publisher.offer(snapshot(3));
+        publisher.close();
+
+        // O último instantâneo é entregue antes do encerramento
+        assertFalse(subscriber.completed);
+        subscriber.subscription.request(1);
+        assertEquals(1, subscriber.received.size());
+        assertTrue(subscriber.completed);
+
+        // Quem assina depois do encerramento recebe a melhor solução e o encerramento
+        RecordingSubscriber late = new RecordingSubscriber();
+        publisher.subscribe(late);
+        late.subscription.request(1);
+        assertEquals(3, late.received.get(0).getGeneration());
+        assertTrue(late.completed);
+
+        assertThrows(IllegalStateException.class, () -> publisher.offer(snapshot(4)));
+    }
+
+    @Test
+    void invalidRequestTest() {
+        SolutionPublisher publisher = new SolutionPublisher(Runnable::run);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+
+        subscriber.subscription.request(0);
+        assertInstanceOf(IllegalArgumentException.class, subscriber.error);
+    }
+
+    @Test
+    void failingSubscriberTest() {
+        SolutionPublisher publisher = new SolutionPublisher(Runnable::run);
+        RecordingSubscriber subscriber = new RecordingSubscriber() {
+            @Override
+            public void onNext(SolutionSnapshot item) {
+                super.onNext(item);
+                throw new IllegalStateException("falha");
+            }
+        };
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(5);
+
+        // O assinante que falhou é descartado sem receber onError nem novos instantâneos
+        publisher.offer(snapshot(0));
+        publisher.offer(snapshot(1));
+        publisher.close();
+        assertEquals(1, subscriber.received.size());
+        assertNull(subscriber.error);
+        assertFalse(subscriber.completed);
+    }
+
+    @Test
+    void cancelOnSubscribeTest() {
+        SolutionPublisher publisher = new SolutionPublisher(Runnable::run);
+        RecordingSubscriber subscriber = new RecordingSubscriber() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                super.onSubscribe(subscription);
+                subscription.request(1);
+                subscription.cancel();
+            }
+        };
+        publisher.subscribe(subscriber);
+
+        publisher.offer(snapshot(0));
+        publisher.close();
+        assertTrue(subscriber.received.isEmpty());
+        assertFalse(subscriber.completed);
+    }
+
+    @Test
+    void invalidSubscriberTest() {
+        SolutionPublisher publisher = new SolutionPublisher(Runnable::run);
+        assertThrows(NullPointerException.class, () -> publisher.subscribe(null));
+
+        // Um assinante que falha em onSubscribe é descartado sem afetar o publicador
+        RecordingSubscriber subscriber = new RecordingSubscriber() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                super.onSubscribe(subscription);
+                subscription.request(1);
+                throw new IllegalStateException("falha");
+            }
+        };
+        assertDoesNotThrow(() -> publisher.subscribe(subscriber));
+
+        publisher.offer(snapshot(0));
+        publisher.close();
+        assertTrue(subscriber.received.isEmpty());
+        assertNull(subscriber.error);
+        assertFalse(subscriber.completed);
+    }
+
+    @Test
+    void snapshotIsImmutableTest() {
+        char[] genes = {'1', '0'};
+        SolutionSnapshot snapshot = new SolutionSnapshot(genes, 1.0, 0);
+
+        genes[0] = '0';
+        snapshot.getGenes()[1] = '1';
+        assertEquals("10", String.valueOf(snapshot.getGenes()));
+    }
+}